@@ -243,6 +243,53 @@ public class ImportPerformanceTest extends AbstractMavenProjectTestCase {
     assertPerformance();
   }
 
+  public void testRefreshAll() throws Exception {
+    System.out.println(getName() + "#setup");
+    importProjects(getBasedir("p001/libs", "libs"));
+    importProjects(getBasedir("p001/core", "core"));
+
+    System.out.println(getName() + "#warmup");
+    projectManager.refresh(newRefreshAllRequest(), monitor);
+
+    // sanity check
+    IMavenProjectFacade[] projects = projectManager.getProjects();
+    assertEquals(34 + 128, projects.length);
+    for(IMavenProjectFacade facade : projects) {
+      assertNoErrors(facade.getProject());
+    }
+
+    for(int i = 0; i < EXECUTION_COUNT; i++ ) {
+      System.out.println(getName() + "#" + i);
+
+      events.clear();
+
+      MavenUpdateRequest request = newRefreshAllRequest();
+      startMeasuring();
+      projectManager.refresh(request, monitor);
+      stopMeasuring();
+
+      // sanity check
+      projects = projectManager.getProjects();
+      assertEquals(34 + 128, projects.length);
+      for(IMavenProjectFacade facade : projects) {
+        assertNoErrors(facade.getProject());
+      }
+
+      assertEquals(34 + 128, events.size());
+    }
+
+    commitMeasurements();
+    assertPerformance();
+  }
+
+  private MavenUpdateRequest newRefreshAllRequest() {
+    MavenUpdateRequest request = new MavenUpdateRequest(false, false);
+    for(IMavenProjectFacade facade : projectManager.getProjects()) {
+      request.addPomFile(facade.getPom());
+    }
+    return request;
+  }
+
   private List<IMavenProjectImportResult> importProjects(final File dir) throws CoreException {
     final List<IMavenProjectImportResult> results = new ArrayList<IMavenProjectImportResult>();
     workspace.run(new IWorkspaceRunnable() {
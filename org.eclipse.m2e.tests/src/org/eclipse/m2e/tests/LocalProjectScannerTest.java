@@ -19,10 +19,13 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -298,6 +301,74 @@ public class LocalProjectScannerTest {
     assertFalse(tempDirectory.exists());
   }
 
+  @Test
+  public void testWideModuleTree() throws Exception {
+    File baseDir = new File(System.getProperty("java.io.tmpdir"), "/testwide-" + new Random().nextInt(10000));
+    try {
+      // modules are declared in reverse name order to detect order changes
+      List<String> modules = new ArrayList<>();
+      for(int i = 9; i >= 0; i-- ) {
+        modules.add("m" + i);
+      }
+      List<String> submodules = Arrays.asList("s2", "s0", "s1");
+      writePom(baseDir, "parent", modules);
+      for(String module : modules) {
+        File moduleDir = new File(baseDir, module);
+        writePom(moduleDir, module, submodules);
+        for(String submodule : submodules) {
+          writePom(new File(moduleDir, submodule), module + "-" + submodule, Collections.emptyList());
+        }
+      }
+
+      for(int run = 0; run < 3; run++ ) {
+        LocalProjectScanner scanner = new LocalProjectScanner(baseDir, baseDir.getAbsolutePath(), false,
+            modelManager);
+        scanner.run(new NullProgressMonitor());
+
+        List<MavenProjectInfo> projects = scanner.getProjects();
+        assertEquals(1, projects.size());
+        assertEquals(1 + modules.size() * (1 + submodules.size()), toPathMap(projects).size());
+
+        List<MavenProjectInfo> moduleInfos = new ArrayList<>(projects.get(0).getProjects());
+        assertEquals(modules.size(), moduleInfos.size());
+        for(int i = 0; i < modules.size(); i++ ) {
+          MavenProjectInfo module = moduleInfos.get(i);
+          assertEquals(modules.get(i) + "/pom.xml", module.getLabel());
+          assertEquals(projects.get(0), module.getParent());
+
+          List<MavenProjectInfo> submoduleInfos = new ArrayList<>(module.getProjects());
+          assertEquals(submodules.size(), submoduleInfos.size());
+          for(int j = 0; j < submodules.size(); j++ ) {
+            assertEquals(submodules.get(j) + "/pom.xml", submoduleInfos.get(j).getLabel());
+            assertEquals(module, submoduleInfos.get(j).getParent());
+          }
+        }
+      }
+    } finally {
+      FileUtils.deleteDirectory(baseDir);
+    }
+  }
+
+  private static void writePom(File dir, String artifactId, List<String> modules) throws IOException {
+    StringBuilder pom = new StringBuilder();
+    pom.append("<project>\n");
+    pom.append("  <modelVersion>4.0.0</modelVersion>\n");
+    pom.append("  <groupId>testwide</groupId>\n");
+    pom.append("  <artifactId>").append(artifactId).append("</artifactId>\n");
+    pom.append("  <version>1.0</version>\n");
+    if(!modules.isEmpty()) {
+      pom.append("  <packaging>pom</packaging>\n");
+      pom.append("  <modules>\n");
+      for(String module : modules) {
+        pom.append("    <module>").append(module).append("</module>\n");
+      }
+      pom.append("  </modules>\n");
+    }
+    pom.append("</project>\n");
+    dir.mkdirs();
+    Files.write(new File(dir, "pom.xml").toPath(), pom.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
   @Test
   public void testNoMetadata() throws Exception {
     File baseDir = new File("projects/localprojectscanner/nometadata").getCanonicalFile();
@@ -22,6 +22,7 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -43,10 +44,13 @@ import org.eclipse.m2e.core.embedder.IMaven;
 import org.eclipse.m2e.core.internal.MavenPluginActivator;
 import org.eclipse.m2e.core.internal.project.registry.Capability;
 import org.eclipse.m2e.core.internal.project.registry.IProjectRegistry;
+import org.eclipse.m2e.core.internal.project.registry.MavenCapability;
 import org.eclipse.m2e.core.internal.project.registry.MavenProjectFacade;
+import org.eclipse.m2e.core.internal.project.registry.MavenRequiredCapability;
 import org.eclipse.m2e.core.internal.project.registry.MutableProjectRegistry;
 import org.eclipse.m2e.core.internal.project.registry.ProjectRegistry;
 import org.eclipse.m2e.core.internal.project.registry.ProjectRegistryReader;
+import org.eclipse.m2e.core.internal.project.registry.RequiredCapability;
 import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
 import org.eclipse.m2e.tests.common.AbstractMavenProjectTestCase;
 
@@ -257,6 +261,63 @@ public class MutableProjectRegistryTest extends AbstractMavenProjectTestCase {
     tmpDir.delete();
   }
 
+  @Test
+  public void testSuccessiveWorkspaceStateWrites() throws Exception {
+    IProject project = createExisting("dummy", "resources/dummy");
+    IFile pom1 = project.getFile("p1.xml");
+    IFile pom2 = project.getFile("p2.xml");
+
+    ProjectRegistry state = new ProjectRegistry();
+    MutableProjectRegistry delta = new MutableProjectRegistry(state);
+    delta.setProject(pom1, newProjectFacade(pom1));
+    state.apply(delta);
+
+    File tmpDir = File.createTempFile("m2e-" + name.getMethodName(), "dir");
+    tmpDir.delete();
+    tmpDir.mkdir();
+    ProjectRegistryReader reader = new ProjectRegistryReader(tmpDir);
+    reader.writeWorkspaceState(state);
+
+    // only the changes since the previous write differ, the restored state must still be complete
+    MavenProjectFacade f2 = newProjectFacade(pom2);
+    MavenCapability capability = MavenCapability.createMavenArtifact(f2.getArtifactKey());
+    delta = new MutableProjectRegistry(state);
+    delta.setProject(pom2, f2);
+    Set<Capability> capabilities = new HashSet<>();
+    capabilities.add(capability);
+    delta.setCapabilities(pom2, capabilities);
+    Set<RequiredCapability> requirements = new HashSet<>();
+    requirements.add(MavenRequiredCapability.createMavenArtifact(f2.getArtifactKey(), "compile", false));
+    delta.setRequirements(pom1, requirements);
+    state.apply(delta);
+    reader.writeWorkspaceState(state);
+
+    state = reader.readWorkspaceState(null);
+    assertTrue(state.isValid());
+    assertEquals(2, state.getProjects().length);
+    MutableProjectRegistry restored = new MutableProjectRegistry(state);
+    assertEquals(Collections.singleton(pom1), restored.getVersionedDependents(capability, false));
+    Map<ArtifactKey, Collection<IFile>> artifacts = getWorkspaceArtifacts(state, f2.getArtifactKey());
+    assertEquals(1, artifacts.size());
+    assertTrue(artifacts.get(f2.getArtifactKey()).contains(pom2));
+    assertEquals(f2.getArtifactKey(), state.getProjectFacade(pom2).getArtifactKey());
+
+    delta = new MutableProjectRegistry(state);
+    delta.removeProject(pom2, f2.getArtifactKey());
+    state.apply(delta);
+    reader.writeWorkspaceState(state);
+
+    state = reader.readWorkspaceState(null);
+    assertTrue(state.isValid());
+    assertEquals(1, state.getProjects().length);
+    assertNull(state.getProjectFacade(pom2));
+    assertTrue(getWorkspaceArtifacts(state, f2.getArtifactKey()).isEmpty());
+    assertEquals(pom1, state.getProjectFacade(pom1).getPom());
+
+    new File(tmpDir, WORKSPACE_STATE_SER).delete();
+    tmpDir.delete();
+  }
+
   private MavenProjectFacade newProjectFacade(IFile pom) throws Exception {
     MavenProject mavenProject = maven.readProject(pom.getLocation().toFile(), monitor);
     return new MavenProjectFacade(null, pom, mavenProject, null);
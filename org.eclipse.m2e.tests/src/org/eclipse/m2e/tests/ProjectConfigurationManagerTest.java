@@ -23,9 +23,11 @@ import static org.junit.Assert.fail;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import org.junit.After;
 import org.junit.Before;
@@ -58,6 +60,7 @@ import org.eclipse.jdt.core.JavaCore;
 import org.codehaus.plexus.util.FileUtils;
 
 import org.apache.maven.archetype.catalog.Archetype;
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.Parent;
 
@@ -70,8 +73,10 @@ import org.eclipse.m2e.core.internal.preferences.ProblemSeverity;
 import org.eclipse.m2e.core.internal.project.registry.ProjectRegistryRefreshJob;
 import org.eclipse.m2e.core.lifecyclemapping.model.IPluginExecutionMetadata;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
+import org.eclipse.m2e.core.project.IMavenProjectImportResult;
 import org.eclipse.m2e.core.project.IProjectConfigurationManager;
 import org.eclipse.m2e.core.project.IProjectCreationListener;
+import org.eclipse.m2e.core.project.LocalProjectScanner;
 import org.eclipse.m2e.core.project.MavenProjectInfo;
 import org.eclipse.m2e.core.project.MavenUpdateRequest;
 import org.eclipse.m2e.core.project.ProjectImportConfiguration;
@@ -173,6 +178,46 @@ public class ProjectConfigurationManagerTest extends AbstractMavenProjectTestCas
     }
   }
 
+  @Test
+  public void testScanCollectAndImportDependencyGraph() throws Exception {
+    File basedir = new File("target", "parallelRefresh").getCanonicalFile();
+    FileUtils.deleteDirectory(basedir);
+    FileUtils.copyDirectoryStructure(new File("projects/parallelRefresh"), basedir);
+
+    IProjectConfigurationManager configurationManager = MavenPlugin.getProjectConfigurationManager();
+    LocalProjectScanner scanner = new LocalProjectScanner(workspace.getRoot().getLocation().toFile(),
+        basedir.getAbsolutePath(), false, MavenPlugin.getMavenModelManager());
+    scanner.run(monitor);
+    Set<MavenProjectInfo> projectInfos = configurationManager.collectProjects(scanner.getProjects());
+    assertEquals(4, projectInfos.size());
+
+    List<IProject> created = new ArrayList<>();
+    List<IMavenProjectImportResult> results = new ArrayList<>();
+    workspace.run((IWorkspaceRunnable) monitor -> results.addAll(configurationManager.importProjects(projectInfos,
+        new ProjectImportConfiguration(), created::add, monitor)), configurationManager.getRule(),
+        IWorkspace.AVOID_UPDATE, monitor);
+    waitForJobsToComplete();
+
+    // however stages overlap, every discovered project is created, configured and sees its upstream projects
+    assertEquals(4, results.size());
+    assertEquals(4, created.size());
+    for(IMavenProjectImportResult result : results) {
+      IProject project = result.getProject();
+      assertNotNull(project);
+      assertTrue(created.contains(project));
+      assertNoErrors(project);
+
+      IMavenProjectFacade facade = MavenPlugin.getMavenProjectRegistry().create(project, monitor);
+      for(Artifact artifact : facade.getMavenProject(monitor).getArtifacts()) {
+        IMavenProjectFacade upstream = MavenPlugin.getMavenProjectRegistry().getMavenProject(artifact.getGroupId(),
+            artifact.getArtifactId(), artifact.getVersion());
+        assertNotNull(artifact.toString(), upstream);
+        assertTrue(artifact.toString(),
+            artifact.getFile().getAbsolutePath().startsWith(upstream.getProject().getLocation().toOSString()));
+      }
+    }
+  }
+
   @Test
   public void testResolutionOfArchetypeFromRepository() throws Exception {
     String oldSettings = mavenConfiguration.getUserSettingsFile();
@@ -207,6 +252,40 @@ public class ProjectConfigurationManagerTest extends AbstractMavenProjectTestCas
     assertEquals("1.5", javaProject.getOption(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, true));
   }
 
+  @Test
+  public void testReimportSameCheckout() throws Exception {
+    IProject project = importProject("projects/getmojoexecution/pom.xml");
+    assertNoErrors(project);
+    List<String> expected = describeConfiguration(project);
+
+    // a fresh import of an unchanged pom must end up with exactly the same configuration
+    project.delete(true, true, monitor);
+    waitForJobsToComplete();
+
+    project = importProject("projects/getmojoexecution/pom.xml");
+    assertNoErrors(project);
+    assertEquals(expected, describeConfiguration(project));
+  }
+
+  private List<String> describeConfiguration(IProject project) throws CoreException {
+    IMavenProjectFacade facade = MavenPlugin.getMavenProjectRegistry().create(project, monitor);
+    List<String> result = new ArrayList<>();
+    result.add(MavenPlugin.getProjectConfigurationManager().getLifecycleMapping(facade).getId());
+    List<String> executions = new ArrayList<>();
+    for(MojoExecutionKey executionKey : facade.getMojoExecutionMapping().keySet()) {
+      executions.add(executionKey.toString());
+    }
+    Collections.sort(executions);
+    result.addAll(executions);
+    IJavaProject javaProject = JavaCore.create(project);
+    for(IClasspathEntry entry : javaProject.getRawClasspath()) {
+      result.add(entry.toString());
+    }
+    result.add(javaProject.getOption(JavaCore.COMPILER_SOURCE, true));
+    result.add(javaProject.getOption(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, true));
+    return result;
+  }
+
   @Test
   public void testStaleProjectConfigurationMarker() throws Exception {
     IProject project = importProject("projects/staleconfiguration/basic/pom.xml");
@@ -386,6 +465,37 @@ public class ProjectConfigurationManagerTest extends AbstractMavenProjectTestCas
     }
   }
 
+  @Test
+  public void testUpdateConfigurationOfChangedAndUnchangedProjects() throws Exception {
+    IProject[] projects = importProjects("projects/updateConfiguration", new String[] {"changed/pom.xml",
+        "unchanged/pom.xml"}, new ResolverConfiguration());
+    IProject changed = projects[0];
+    IProject unchanged = projects[1];
+    assertNoErrors(changed);
+    assertNoErrors(unchanged);
+    assertEquals("1.7", JavaCore.create(changed).getOption(JavaCore.COMPILER_SOURCE, true));
+    assertEquals("1.7", JavaCore.create(unchanged).getOption(JavaCore.COMPILER_SOURCE, true));
+
+    copyContent(changed, "pom-changed.xml", "pom.xml");
+
+    // only the changed project has new inputs, but both must end up up-to-date
+    IProjectConfigurationManager manager = MavenPlugin.getProjectConfigurationManager();
+    manager.updateProjectConfiguration(new MavenUpdateRequest(projects, true, false), monitor);
+    waitForJobsToComplete();
+    assertNoErrors(changed);
+    assertNoErrors(unchanged);
+    assertEquals("1.8", JavaCore.create(changed).getOption(JavaCore.COMPILER_SOURCE, true));
+    assertEquals("1.7", JavaCore.create(unchanged).getOption(JavaCore.COMPILER_SOURCE, true));
+
+    // nothing changed since the last update
+    manager.updateProjectConfiguration(new MavenUpdateRequest(projects, true, false), monitor);
+    waitForJobsToComplete();
+    assertNoErrors(changed);
+    assertNoErrors(unchanged);
+    assertEquals("1.8", JavaCore.create(changed).getOption(JavaCore.COMPILER_SOURCE, true));
+    assertEquals("1.7", JavaCore.create(unchanged).getOption(JavaCore.COMPILER_SOURCE, true));
+  }
+
   private List<IClasspathEntry> filterClasspath(IClasspathEntry[] candidates, int cptype) {
     List<IClasspathEntry> result = new ArrayList<>();
     if(candidates != null) {
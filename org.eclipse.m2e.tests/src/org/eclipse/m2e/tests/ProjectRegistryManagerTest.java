@@ -28,6 +28,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.After;
 import org.junit.Before;
@@ -72,6 +78,7 @@ import org.eclipse.m2e.core.internal.project.registry.ProjectRegistryManager;
 import org.eclipse.m2e.core.internal.project.registry.ProjectRegistryRefreshJob;
 import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
+import org.eclipse.m2e.core.project.IMavenProjectRegistry;
 import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
 import org.eclipse.m2e.core.project.MavenUpdateRequest;
 import org.eclipse.m2e.core.project.ResolverConfiguration;
@@ -90,7 +97,13 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
 
   ArrayList<MavenProjectChangedEvent> events;
 
-  IMavenProjectChangedListener listener = (event, monitor) -> events.addAll(Arrays.asList(event));
+  /** events grouped by listener notification */
+  ArrayList<MavenProjectChangedEvent[]> batches;
+
+  IMavenProjectChangedListener listener = (event, monitor) -> {
+    events.addAll(Arrays.asList(event));
+    batches.add(event);
+  };
 
   @Rule
   public TestName name = new TestName();
@@ -103,6 +116,7 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
     manager = MavenPluginActivator.getDefault().getMavenProjectManagerImpl();
 
     events = new ArrayList<>();
+    batches = new ArrayList<>();
     manager.addMavenProjectChangedListener(listener);
   }
 
@@ -113,6 +127,7 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
       manager.removeMavenProjectChangedListener(listener);
       listener = null;
       events = null;
+      batches = null;
       manager = null;
     } finally {
       super.tearDown();
@@ -271,6 +286,36 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
     assertNotNull(event.getMavenProject());
   }
 
+  @Test
+  public void testForcedUpdateResolvesDeletedArtifact() throws Exception {
+    IProject project = importProject("projects/forcedUpdateResolution/pom.xml");
+    waitForJobsToComplete();
+    assertNoErrors(project);
+    assertEquals(1, getMavenProjectArtifacts(manager.create(project, monitor)).size());
+
+    File oro = new File(repo, "oro/oro/2.0.8");
+    File backup = new File("target/" + name.getMethodName() + "-oro");
+    FileUtils.deleteDirectory(backup);
+    FileUtils.copyDirectoryStructure(oro, backup);
+    try {
+      // local repository changed underneath, forced update must not reuse stale results
+      FileUtils.deleteDirectory(oro);
+      MavenUpdateRequest request = new MavenUpdateRequest(project, false, true);
+      manager.refresh(request, monitor);
+      assertNoErrors(project);
+
+      Set<Artifact> artifacts = getMavenProjectArtifacts(manager.create(project, monitor));
+      assertEquals(1, artifacts.size());
+      Artifact artifact = artifacts.iterator().next();
+      assertTrue(artifact.isResolved());
+      assertTrue(artifact.getFile().toString(), artifact.getFile().isFile());
+    } finally {
+      FileUtils.deleteDirectory(oro);
+      FileUtils.copyDirectoryStructure(backup, oro);
+      FileUtils.deleteDirectory(backup);
+    }
+  }
+
   @Test
   public void test001_missingParent() throws Exception {
     FileUtils.deleteDirectory(new File(repo, "t001"));
@@ -1348,6 +1393,65 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
 
   }
 
+  @Test
+  public void testAffectedDependentsOnly() throws Exception {
+    IProject[] projects = importProjects("projects/affectedDependents", new String[] {"provider/pom.xml",
+        "direct/pom.xml", "ranged/pom.xml", "other/pom.xml", "sibling/pom.xml"}, new ResolverConfiguration());
+    waitForJobsToComplete();
+
+    IProject provider = projects[0];
+
+    // depends on provider:1.0
+    IProject direct = projects[1];
+
+    // depends on provider:[1.0,2.0)
+    IProject ranged = projects[2];
+
+    // same groupId as provider, not affected by provider changes
+    IProject other = projects[3];
+    IProject sibling = projects[4];
+    assertNotNull(manager.create(other, monitor));
+    assertNotNull(manager.create(sibling, monitor));
+
+    for(IProject project : projects) {
+      assertNoErrors(project);
+    }
+
+    events.clear();
+    copyContent(provider, "pom_newDependency.xml", "pom.xml");
+    assertContainsOnly(getProjectsFromEvents(events), provider /* self */, direct, ranged);
+  }
+
+  @Test
+  public void testChangeEventsCarryPreviousState() throws Exception {
+    IProject[] projects = importProjects("projects/affectedDependents", new String[] {"provider/pom.xml",
+        "direct/pom.xml", "ranged/pom.xml"}, new ResolverConfiguration());
+    waitForJobsToComplete();
+
+    batches.clear();
+    copyContent(projects[0], "pom_newDependency.xml", "pom.xml");
+
+    // one refresh cycle is delivered as one batch
+    assertEquals(1, batches.size());
+    assertEquals(projects.length, batches.get(0).length);
+
+    // listeners can tell what changed without re-reading the maven projects
+    for(MavenProjectChangedEvent event : batches.get(0)) {
+      assertEquals(MavenProjectChangedEvent.KIND_CHANGED, event.getKind());
+      assertFalse(containsArtifact(event.getOldMavenProject().getMavenProjectArtifacts(), "junit"));
+      assertTrue(containsArtifact(event.getMavenProject().getMavenProjectArtifacts(), "junit"));
+    }
+  }
+
+  private static boolean containsArtifact(Set<ArtifactRef> artifacts, String artifactId) {
+    for(ArtifactRef artifact : artifacts) {
+      if(artifactId.equals(artifact.getArtifactId())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Test
   public void test436929_import_refresh() throws Exception {
 
@@ -1413,6 +1517,50 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
     assertContainsOnly(getProjectsFromEvents(events), p1 /* self */, p2);
   }
 
+  @Test
+  public void testSharedParentAndImportedModelChanges() throws Exception {
+    IProject[] projects = importProjects("projects/sharedParentModels", new String[] {"bom/pom.xml",
+        "parent/pom.xml", "child1/pom.xml", "child2/pom.xml"}, new ResolverConfiguration());
+    waitForJobsToComplete();
+
+    // imported by parent
+    IProject bom = projects[0];
+
+    // parent of child1 and child2
+    IProject parent = projects[1];
+    IProject child1 = projects[2];
+    IProject child2 = projects[3];
+
+    assertNoErrors(child1);
+    assertNoErrors(child2);
+    assertManagedJunitVersion("3.8.1", child1, child2);
+
+    // children sharing the same parent and bom must not see stale effective models
+    events.clear();
+    copyContent(bom, "pom_modified.xml", "pom.xml");
+    assertContainsOnly(getProjectsFromEvents(events), bom /* self */, parent, child1, child2);
+    assertNoErrors(child1);
+    assertNoErrors(child2);
+    assertManagedJunitVersion("3.8.2", child1, child2);
+
+    // touching the parent without changes keeps the resolved versions
+    IFile parentPom = parent.getFile("pom.xml");
+    parentPom.setLocalTimeStamp(parentPom.getLocalTimeStamp() + 1000L);
+    parentPom.touch(monitor);
+    refreshMavenProject(parent);
+    waitForJobsToComplete();
+    assertManagedJunitVersion("3.8.2", child1, child2);
+  }
+
+  private void assertManagedJunitVersion(String version, IProject... projects) throws CoreException {
+    for(IProject project : projects) {
+      List<Artifact> artifacts = new ArrayList<>(getMavenProjectArtifacts(manager.create(project, monitor)));
+      assertEquals(project.getName(), 1, artifacts.size());
+      assertEquals(project.getName(), "junit", artifacts.get(0).getArtifactId());
+      assertEquals(project.getName(), version, artifacts.get(0).getVersion());
+    }
+  }
+
   @Test
   public void test441257_stalePluginRealms() throws Exception {
     IProject project = importProject("projects/441257_stalePluginRealms/basic/pom.xml");
@@ -1519,4 +1667,149 @@ public class ProjectRegistryManagerTest extends AbstractMavenProjectTestCase {
     manager.refresh(request, monitor);
     assertNoErrors(projects[0]);
   }
+
+  @Test
+  public void testConcurrentReadsDuringRefresh() throws Exception {
+    IProject[] projects = importProjects("projects/parallelRefresh", new String[] {"a/pom.xml", "b/pom.xml",
+        "c/pom.xml", "d/pom.xml"}, new ResolverConfiguration());
+    waitForJobsToComplete();
+
+    IMavenProjectRegistry registry = MavenPlugin.getMavenProjectRegistry();
+    AtomicBoolean refreshing = new AtomicBoolean(true);
+    CountDownLatch started = new CountDownLatch(4);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> readers = new ArrayList<>();
+      for(int i = 0; i < 4; i++ ) {
+        readers.add(executor.submit(() -> {
+          started.countDown();
+          int readsDuringRefresh = 0;
+          do {
+            // readers must always see a complete registry, never a partially applied refresh
+            assertEquals(projects.length, registry.getProjects().length);
+            for(IProject project : projects) {
+              IMavenProjectFacade facade = registry.getProject(project);
+              assertNotNull(project.getName(), facade);
+              assertEquals(project, facade.getProject());
+              assertSame(project,
+                  registry.getMavenProject("parallelRefresh", project.getName(), "1.0").getProject());
+            }
+            if(refreshing.get()) {
+              readsDuringRefresh++ ;
+            }
+          } while(refreshing.get());
+          return readsDuringRefresh;
+        }));
+      }
+      assertTrue("readers did not start", started.await(30, TimeUnit.SECONDS));
+
+      for(int i = 0; i < 10; i++ ) {
+        manager.refresh(new MavenUpdateRequest(projects, false, true), monitor);
+      }
+      refreshing.set(false);
+
+      // readers were not shut out for the whole refresh loop
+      int readsDuringRefresh = 0;
+      for(Future<Integer> reader : readers) {
+        readsDuringRefresh += reader.get(60, TimeUnit.SECONDS);
+      }
+      assertTrue(readsDuringRefresh > 0);
+    } finally {
+      refreshing.set(false);
+      executor.shutdownNow();
+      assertTrue("readers did not stop", executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void testSharedPluginRealms() throws Exception {
+    IProject[] projects = importProjects("projects/sharedPluginRealms", new String[] {"a/pom.xml", "b/pom.xml"},
+        new ResolverConfiguration());
+    for(IProject project : projects) {
+      project.build(IncrementalProjectBuilder.FULL_BUILD, monitor);
+    }
+    waitForJobsToComplete();
+    assertNoErrors(projects[0]);
+    assertNoErrors(projects[1]);
+
+    ClassRealm realmB = manager.create(projects[1], monitor).getMavenProject().getClassRealm();
+    assertNotNull(realmB);
+    ClassWorld world = realmB.getWorld();
+    String extensionRealmId = "extension>org.eclipse.m2e.test.lifecyclemapping:test-lifecyclemapping-plugin:1.0.0";
+    ClassRealm extensionRealm = world.getClassRealm(extensionRealmId);
+    assertNotNull(extensionRealm);
+    assertLiveRealm(world, realmB);
+
+    // refreshing a must not dispose realms still used by b
+    MavenUpdateRequest request = new MavenUpdateRequest(projects[0], false, true);
+    manager.refresh(request, monitor);
+    projects[1].build(IncrementalProjectBuilder.FULL_BUILD, monitor);
+    waitForJobsToComplete();
+    assertNoErrors(projects[1]);
+
+    // b either still uses the realms it had, or was rebuilt against the new ones
+    ClassRealm newRealmB = manager.create(projects[1], monitor).getMavenProject().getClassRealm();
+    assertLiveRealm(world, newRealmB);
+    if(newRealmB == realmB && realmB.getImportRealms().contains(extensionRealm)) {
+      assertSame(extensionRealm, world.getClassRealm(extensionRealmId));
+    }
+
+    request = new MavenUpdateRequest(projects, false, true);
+    manager.refresh(request, monitor);
+    for(IProject project : projects) {
+      project.build(IncrementalProjectBuilder.FULL_BUILD, monitor);
+    }
+    waitForJobsToComplete();
+    assertNoErrors(projects[0]);
+    assertNoErrors(projects[1]);
+    for(IProject project : projects) {
+      assertLiveRealm(world, manager.create(project, monitor).getMavenProject().getClassRealm());
+    }
+  }
+
+  /**
+   * Asserts the realm and all realms it imports from are still registered, i.e. none of them was disposed.
+   */
+  private static void assertLiveRealm(ClassWorld world, ClassRealm realm) {
+    assertSame(realm.getId(), realm, world.getClassRealm(realm.getId()));
+    for(ClassRealm imported : realm.getImportRealms()) {
+      assertSame(realm.getId() + " imports " + imported.getId(), imported, world.getClassRealm(imported.getId()));
+    }
+  }
+
+  @Test
+  public void testRefreshDependencyGraphSingleDelta() throws Exception {
+    // a <- b, a <- c, {b, c} <- d
+    IProject[] projects = importProjects("projects/parallelRefresh", new String[] {"a/pom.xml", "b/pom.xml",
+        "c/pom.xml", "d/pom.xml"}, new ResolverConfiguration());
+    waitForJobsToComplete();
+    for(IProject project : projects) {
+      assertNoErrors(project);
+    }
+
+    events.clear();
+    batches.clear();
+    MavenUpdateRequest request = new MavenUpdateRequest(projects, false, true);
+    manager.refresh(request, monitor);
+
+    // independent modules may be resolved concurrently, but the registry delta is applied once
+    assertEquals(1, batches.size());
+    assertEquals(projects.length, events.size());
+    assertContainsOnly(getProjectsFromEvents(events), projects);
+
+    // d still sees b, c and transitive a from the workspace
+    IMavenProjectFacade d = manager.create(projects[3], monitor);
+    Set<Artifact> artifacts = getMavenProjectArtifacts(d);
+    assertEquals(3, artifacts.size());
+    for(Artifact artifact : artifacts) {
+      IMavenProjectFacade upstream = manager.getMavenProject(artifact.getGroupId(), artifact.getArtifactId(),
+          artifact.getVersion());
+      assertNotNull(artifact.toString(), upstream);
+      assertTrue(artifact.toString(),
+          artifact.getFile().getAbsolutePath().startsWith(upstream.getProject().getLocation().toOSString()));
+    }
+    for(IProject project : projects) {
+      assertNoErrors(project);
+    }
+  }
 }
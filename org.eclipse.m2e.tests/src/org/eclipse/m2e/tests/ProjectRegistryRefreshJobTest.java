@@ -18,12 +18,20 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 
 import org.eclipse.core.internal.events.ResourceChangeEvent;
@@ -32,6 +40,8 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -176,6 +186,121 @@ public class ProjectRegistryRefreshJobTest extends AbstractMavenProjectTestCase
     assertEquals(338, LOCAL_ARTIFACT.length());
   }
 
+  @Test
+  public void testOverlappingRequestsReportEachProjectOnce() throws Exception {
+    setAutoBuilding(true);
+    IProject[] projects = importProjects("projects/updateProject/multiProject/", new String[] {"projectA/pom.xml",
+        "projectB/pom.xml"}, new ResolverConfiguration());
+    waitForJobsToComplete();
+    WorkspaceHelpers.assertNoErrors(projects[0]);
+    WorkspaceHelpers.assertNoErrors(projects[1]);
+
+    // a burst of overlapping requests, as produced by branch switches
+    events.clear();
+    projectRefreshJob.refresh(new MavenUpdateRequest(projects[0], false, false));
+    projectRefreshJob.refresh(new MavenUpdateRequest(projects, false, false));
+    projectRefreshJob.refresh(new MavenUpdateRequest(projects[1], false, false));
+    projectRefreshJob.refresh(new MavenUpdateRequest(projects[0], false, false));
+    waitForJobsToComplete();
+    assertTrue(projectRefreshJob.isEmpty());
+
+    // one change event per project, no matter how many requests named it
+    assertEquals(projects.length, events.size());
+    assertContainsOnly(getProjectsFromEvents(events), projects);
+    WorkspaceHelpers.assertNoErrors(projects[0]);
+    WorkspaceHelpers.assertNoErrors(projects[1]);
+  }
+
+  @Test
+  public void testUnrelatedWorkspaceOperationsDuringRefresh() throws Exception {
+    project = importProject("projects/updateProject/simple/pom.xml");
+    waitForJobsToComplete();
+    WorkspaceHelpers.assertNoErrors(project);
+
+    IProject unrelated = workspace.getRoot().getProject("unrelated");
+    unrelated.create(monitor);
+    unrelated.open(monitor);
+
+    // edits outside the refreshed project must not fail or be lost while a refresh is pending
+    events.clear();
+    projectRefreshJob.refresh(new MavenUpdateRequest(project, false, true));
+    for(int i = 0; i < 10; i++ ) {
+      IFile file = unrelated.getFile("file" + i + ".txt");
+      workspace.run((IWorkspaceRunnable) m -> file.create(new ByteArrayInputStream(new byte[0]), true, m), unrelated,
+          IWorkspace.AVOID_UPDATE, monitor);
+    }
+    waitForJobsToComplete();
+
+    for(int i = 0; i < 10; i++ ) {
+      assertTrue(unrelated.getFile("file" + i + ".txt").exists());
+    }
+    assertContainsOnly(getProjectsFromEvents(events), project);
+    WorkspaceHelpers.assertNoErrors(project);
+  }
+
+  /**
+   * This test disabled until ProjectRegistryRefreshJob runs under per-project scheduling rules computed from the
+   * affected projects instead of the workspace root rule.
+   */
+  @Test
+  @Ignore
+  public void _testUnrelatedWorkspaceOperationsNotBlockedByRefresh() throws Exception {
+    project = importProject("projects/updateProject/simple/pom.xml");
+    waitForJobsToComplete();
+    WorkspaceHelpers.assertNoErrors(project);
+
+    IProject unrelated = workspace.getRoot().getProject("unrelated");
+    unrelated.create(monitor);
+    unrelated.open(monitor);
+
+    // hold the refresh job in a change listener, i.e. while it still owns its scheduling rule
+    CountDownLatch refreshing = new CountDownLatch(1);
+    CountDownLatch edited = new CountDownLatch(1);
+    AtomicBoolean editedDuringRefresh = new AtomicBoolean();
+    IMavenProjectChangedListener blockingListener = (event, m) -> {
+      if(refreshing.getCount() > 0) {
+        refreshing.countDown();
+        try {
+          editedDuringRefresh.set(edited.await(30, TimeUnit.SECONDS));
+        } catch(InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    manager.addMavenProjectChangedListener(blockingListener);
+    try {
+      events.clear();
+      projectRefreshJob.refresh(new MavenUpdateRequest(project, false, true));
+      assertTrue("refresh did not start", refreshing.await(60, TimeUnit.SECONDS));
+
+      // edits outside the refreshed project must not wait for the refresh to finish
+      Future<?> edits = executor.submit(() -> {
+        for(int i = 0; i < 10; i++ ) {
+          IFile file = unrelated.getFile("file" + i + ".txt");
+          workspace.run((IWorkspaceRunnable) m -> file.create(new ByteArrayInputStream(new byte[0]), true, m),
+              unrelated, IWorkspace.AVOID_UPDATE, new NullProgressMonitor());
+        }
+        edited.countDown();
+        return null;
+      });
+      edits.get(60, TimeUnit.SECONDS);
+      waitForJobsToComplete();
+      assertTrue("edits were blocked by the refresh", editedDuringRefresh.get());
+    } finally {
+      edited.countDown();
+      manager.removeMavenProjectChangedListener(blockingListener);
+      executor.shutdownNow();
+      assertTrue("editor did not stop", executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+
+    for(int i = 0; i < 10; i++ ) {
+      assertTrue(unrelated.getFile("file" + i + ".txt").exists());
+    }
+    assertContainsOnly(getProjectsFromEvents(events), project);
+    WorkspaceHelpers.assertNoErrors(project);
+  }
+
   @Test
   public void testRefreshAfterOpen() throws Exception {
     setAutoBuilding(true);
@@ -14,6 +14,7 @@
 package org.eclipse.m2e.tests.embedder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 import org.junit.Test;
 
@@ -33,4 +34,18 @@ public class ArtifactKeyTest {
     assertEquals(k3, ArtifactKey.fromPortableString(k3.toPortableString()));
   }
 
+  @Test
+  public void testValueEquality() {
+    // keys built from distinct string instances, as read from different poms
+    ArtifactKey k1 = new ArtifactKey(new String("g"), new String("a"), new String("v"), null);
+    ArtifactKey k2 = new ArtifactKey(new String("g"), new String("a"), new String("v"), null);
+    assertEquals(k1, k2);
+    assertEquals(k1.hashCode(), k2.hashCode());
+    assertEquals(k1.toPortableString(), k2.toPortableString());
+
+    assertNotEquals(k1, new ArtifactKey("g", "a", "v", "c"));
+    assertNotEquals(k1, new ArtifactKey("g", "a", "v2", null));
+    assertNotEquals(k1, new ArtifactKey("g", "b", "v", null));
+  }
+
 }
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.net.URL;
 import java.net.URLClassLoader;
 
@@ -140,6 +141,39 @@ public class MavenExecutionContextTest extends AbstractMavenProjectTestCase {
     }
   }
 
+  @Test
+  public void testSequentialExecutionsAreIsolated() throws Exception {
+    final String property = "sequential-property";
+    maven.execute((context, monitor) -> {
+      context.getSession().getUserProperties().put(property, "true");
+      return null;
+    }, monitor);
+    // a reused context must not carry state from the previous execution
+    maven.execute((context, monitor) -> {
+      assertFalse(context.getSession().getUserProperties().containsKey(property));
+      assertFalse(context.getExecutionRequest().getUserProperties().containsKey(property));
+      return null;
+    }, monitor);
+  }
+
+  @Test
+  public void testSettingsChangeVisibleToNextExecution() throws Exception {
+    String origSettings = mavenConfiguration.getUserSettingsFile();
+    try {
+      mavenConfiguration.setUserSettingsFile(new File("src/org/eclipse/m2e/tests/embedder/settings-emptylocal.xml")
+          .getCanonicalPath());
+      waitForJobsToComplete();
+      // contexts created before the settings change must not be handed out afterwards
+      String basedir = maven.execute((context, monitor) -> context.getLocalRepository().getBasedir(), monitor);
+      assertTrue(basedir, new File(basedir).getName().equals("emptylocalrepo"));
+    } finally {
+      mavenConfiguration.setUserSettingsFile(origSettings);
+      waitForJobsToComplete();
+    }
+    String basedir = maven.execute((context, monitor) -> context.getLocalRepository().getBasedir(), monitor);
+    assertFalse(basedir, new File(basedir).getName().equals("emptylocalrepo"));
+  }
+
   @Test
   public void testExecutionRequestContainsSystemProperties() throws Exception {
     maven.execute((context, monitor) -> {
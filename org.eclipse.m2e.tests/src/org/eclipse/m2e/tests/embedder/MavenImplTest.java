@@ -24,8 +24,15 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -537,34 +544,122 @@ public class MavenImplTest extends AbstractMavenProjectTestCase {
 
   @Test
   public void test386196_ParallelDownloads() throws Exception {
-    IProgressMonitor monitor = new NullProgressMonitor() {
+    IProgressMonitor monitor = newDownloadProgressMonitor();
 
-      private Pattern pattern = Pattern.compile("(\\d*)%");
+    String origSettings = configuration.getUserSettingsFile();
+    try {
+      configuration.setUserSettingsFile(new File("src/org/eclipse/m2e/tests/embedder/settings-emptylocal.xml")
+          .getCanonicalPath());
 
-      @Override
-      public void subTask(String name) {
-        Matcher m = pattern.matcher(name);
-        if(m.find()) {
-          String progress = m.group(1);
-          assertFalse("Unexpected progress value :" + name, Integer.parseInt(progress) > 100);
+      FileHelpers.deleteDirectory(new File("target/emptylocalrepo/"));
+
+      readMavenProject(new File("projects/386196-parallel-downloads/pom.xml"), true, monitor);
+
+    } finally {
+      configuration.setUserSettingsFile(origSettings);
+    }
+  }
+
+  @Test
+  public void test386196_ParallelDownloadsHttp() throws Exception {
+    IProgressMonitor monitor = newDownloadProgressMonitor();
+
+    HttpServer httpServer = new HttpServer();
+    httpServer.addResources("/", "");
+    httpServer.enableRecording(".*");
+    httpServer.start();
+
+    String origSettings = configuration.getUserSettingsFile();
+    try {
+      File settingsFile = new File("target/settings-386196.xml");
+      FileHelpers.filterXmlFile(new File("projects/386196-parallel-downloads/settings-template.xml"), settingsFile,
+          Collections.singletonMap("@port.http@", Integer.toString(httpServer.getHttpPort())));
+      configuration.setUserSettingsFile(settingsFile.getCanonicalPath());
+
+      FileHelpers.deleteDirectory(new File("target/emptylocalrepo-http/"));
+
+      MavenExecutionResult result = readMavenProject(new File("projects/386196-parallel-downloads/pom.xml"), true,
+          monitor);
+      assertFalse(result.getExceptions().toString(), result.hasExceptions());
+
+      Set<Artifact> artifacts = result.getProject().getArtifacts();
+      assertFalse(artifacts.isEmpty());
+      for(Artifact artifact : artifacts) {
+        assertTrue(artifact.toString(), artifact.isResolved());
+        assertTrue(artifact.toString(), artifact.getFile().isFile());
+      }
+
+      // however many downloads run concurrently, each artifact is fetched exactly once
+      List<String> jars = new ArrayList<>();
+      for(String httpRequest : httpServer.getRecordedRequests()) {
+        String uri = httpRequest.split(" ")[1];
+        if(uri.endsWith(".jar")) {
+          jars.add(uri);
         }
       }
-    };
+      assertEquals(jars.toString(), artifacts.size(), jars.size());
+      assertEquals(jars.toString(), jars.size(), new HashSet<>(jars).size());
+    } finally {
+      configuration.setUserSettingsFile(origSettings);
+      httpServer.stop();
+    }
+  }
+
+  @Test
+  public void testConcurrentResolveOfSameArtifact() throws Exception {
+    File remote = new File("repositories/remoterepo/commons-beanutils/commons-beanutils/1.6/commons-beanutils-1.6.jar");
 
     String origSettings = configuration.getUserSettingsFile();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
     try {
       configuration.setUserSettingsFile(new File("src/org/eclipse/m2e/tests/embedder/settings-emptylocal.xml")
           .getCanonicalPath());
 
       FileHelpers.deleteDirectory(new File("target/emptylocalrepo/"));
 
-      readMavenProject(new File("projects/386196-parallel-downloads/pom.xml"), true, monitor);
+      // release all resolves at once, so they overlap on the same artifact
+      CyclicBarrier start = new CyclicBarrier(4);
+      List<Future<Artifact>> futures = new ArrayList<>();
+      for(int i = 0; i < 4; i++ ) {
+        futures.add(executor.submit(() -> {
+          start.await(30, TimeUnit.SECONDS);
+          return maven.resolve("commons-beanutils", "commons-beanutils", "1.6", "jar", null, null,
+              new NullProgressMonitor());
+        }));
+      }
 
+      // all callers share the same, complete download
+      File file = futures.get(0).get(60, TimeUnit.SECONDS).getFile();
+      for(Future<Artifact> future : futures) {
+        Artifact artifact = future.get(60, TimeUnit.SECONDS);
+        assertTrue(artifact.isResolved());
+        assertEquals(file, artifact.getFile());
+      }
+      assertTrue(file.isFile());
+      assertEquals(remote.length(), file.length());
     } finally {
+      executor.shutdownNow();
+      assertTrue("resolves did not stop", executor.awaitTermination(30, TimeUnit.SECONDS));
       configuration.setUserSettingsFile(origSettings);
     }
   }
 
+  private static IProgressMonitor newDownloadProgressMonitor() {
+    return new NullProgressMonitor() {
+
+      private Pattern pattern = Pattern.compile("(\\d*)%");
+
+      @Override
+      public void subTask(String name) {
+        Matcher m = pattern.matcher(name);
+        if(m.find()) {
+          String progress = m.group(1);
+          assertFalse("Unexpected progress value :" + name, Integer.parseInt(progress) > 100);
+        }
+      }
+    };
+  }
+
   @Test
   public void test438454_guiceScopedComponentInjection() throws Exception {
     // the point of this test is to verify that @MojoExecutionScoped component can be instantiated and injected
@@ -39,6 +39,19 @@ public class IndexedArtifactTest {
     doTest(false);
   }
 
+  @Test
+  public void testEqualCopies() {
+    // records decoded separately from index storage must compare by value, not by identity
+    IndexedArtifact art = new IndexedArtifact("group2", "artifact1", "pkg1", "foo", "jar");
+    IndexedArtifact copy = new IndexedArtifact(new String("group2"), new String("artifact1"), new String("pkg1"),
+        new String("foo"), new String("jar"));
+    assertTrue(art.equals(copy));
+    assertTrue(copy.equals(art));
+    assertTrue(art.hashCode() == copy.hashCode());
+    assertTrue(getNullArtifact().equals(getNullArtifact()));
+    assertTrue(getNullArtifact().hashCode() == getNullArtifact().hashCode());
+  }
+
   /**
    * Test a bunch of objects against themselves/each other. Test either hashcode or equals.
    * 
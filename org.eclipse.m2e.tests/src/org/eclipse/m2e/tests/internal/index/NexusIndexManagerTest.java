@@ -230,6 +230,66 @@ public class NexusIndexManagerTest extends AbstractNexusIndexManagerTest {
         .isEmpty());
   }
 
+  @Test
+  public void testWorkspaceIndexIncrementalUpdates() throws Exception {
+    deleteProject("resourcefiltering-p001");
+    deleteProject("resourcefiltering-p005");
+    waitForJobsToComplete();
+
+    createExisting("resourcefiltering-p001", "projects/resourcefiltering/p001");
+    createExisting("resourcefiltering-p005", "projects/resourcefiltering/p005");
+    waitForJobsToComplete();
+    assertEquals(1, searchWorkspaceIndex("p001").size());
+    assertEquals(1, searchWorkspaceIndex("p005").size());
+
+    // removing one project must only drop that project's entry
+    deleteProject("resourcefiltering-p005");
+    waitForJobsToComplete();
+    assertEquals(1, searchWorkspaceIndex("p001").size());
+    assertTrue(searchWorkspaceIndex("p005").isEmpty());
+
+    createExisting("resourcefiltering-p005", "projects/resourcefiltering/p005");
+    waitForJobsToComplete();
+    assertEquals(1, searchWorkspaceIndex("p001").size());
+    assertEquals(1, searchWorkspaceIndex("p005").size());
+
+    // changing details of the local repository index must not lose workspace entries
+    IRepository localRepository = repositoryRegistry.getLocalRepository();
+    indexManager.setIndexDetails(localRepository, NexusIndex.DETAILS_FULL, monitor);
+    waitForJobsToComplete();
+    try {
+      assertEquals(1, searchWorkspaceIndex("p001").size());
+      assertEquals(1, searchWorkspaceIndex("p005").size());
+    } finally {
+      indexManager.setIndexDetails(localRepository, NexusIndex.DETAILS_MIN, monitor);
+      waitForJobsToComplete();
+    }
+
+    deleteProject("resourcefiltering-p001");
+    deleteProject("resourcefiltering-p005");
+    waitForJobsToComplete();
+  }
+
+  @Test
+  public void testRepeatedSearchesReturnEqualRecords() throws Exception {
+    String projectName = "resourcefiltering-p005";
+    deleteProject(projectName);
+    createExisting(projectName, "projects/resourcefiltering/p005");
+    waitForJobsToComplete();
+
+    // repeated lookups may decode fresh records, which must still be equal
+    Map<String, IndexedArtifact> first = searchWorkspaceIndex("p005");
+    assertEquals(1, first.size());
+    assertEquals(first, searchWorkspaceIndex("p005"));
+
+    deleteProject(projectName);
+    waitForJobsToComplete();
+  }
+
+  private Map<String, IndexedArtifact> searchWorkspaceIndex(String artifactId) throws CoreException {
+    return indexManager.getWorkspaceIndex().search(new SourcedSearchExpression(artifactId), IIndex.SEARCH_ARTIFACT, 0);
+  }
+
   //you're right. its too painfully slow
 
   /**
@@ -13,6 +13,7 @@
 
 package org.eclipse.m2e.tests.internal.project;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -47,12 +48,6 @@ public class ImportSortOrderTestCase extends AbstractMavenProjectTestCase {
   }
 
   private List<IMavenProjectFacade> createFacades() throws Exception {
-
-    List<IMavenProjectFacade> facades = new ArrayList<>();
-
-    ProjectRegistryManager manager = new ProjectRegistryManager((MavenImpl) MavenPlugin.getMaven(), null, false,
-        MavenPluginActivator.getDefault().getMavenMarkerManager());
-
     List<IProject> projects = new ArrayList<>();
 
     projects.add(createProject("Pos", "projects/MNGECLIPSE-1028/pom.xml"));
@@ -74,6 +69,16 @@ public class ImportSortOrderTestCase extends AbstractMavenProjectTestCase {
     projects.add(createProject("PosConfigJar", "projects/MNGECLIPSE-1028/PosConfig/PosConfigJar/pom.xml"));
     projects.add(createProject("PosConfigWeb", "projects/MNGECLIPSE-1028/PosConfig/PosConfigWeb/pom.xml"));
 
+    return createFacades(projects);
+  }
+
+  private List<IMavenProjectFacade> createFacades(List<IProject> projects) throws Exception {
+
+    List<IMavenProjectFacade> facades = new ArrayList<>();
+
+    ProjectRegistryManager manager = new ProjectRegistryManager((MavenImpl) MavenPlugin.getMaven(), null, false,
+        MavenPluginActivator.getDefault().getMavenMarkerManager());
+
     MavenUpdateRequest updateRequest = new MavenUpdateRequest(false, false);
     for(IProject project : projects) {
       updateRequest.addPomFile(project);
@@ -102,6 +107,31 @@ public class ImportSortOrderTestCase extends AbstractMavenProjectTestCase {
     assertResultMap(aMap);
   }
 
+  @Test
+  public void testSortProjectDependencyGraph() throws Exception {
+    ProjectConfigurationManager manager = (ProjectConfigurationManager) MavenPlugin.getProjectConfigurationManager();
+
+    // listed downstream first; b and c only depend on a and may be configured in any order
+    List<IProject> projects = new ArrayList<>();
+    projects.add(createProject("d", "projects/parallelRefresh/d/pom.xml"));
+    projects.add(createProject("c", "projects/parallelRefresh/c/pom.xml"));
+    projects.add(createProject("b", "projects/parallelRefresh/b/pom.xml"));
+    projects.add(createProject("a", "projects/parallelRefresh/a/pom.xml"));
+
+    List<IMavenProjectFacade> facades = createFacades(projects);
+    manager.sortProjects(facades, monitor);
+
+    Map<String, Integer> aMap = new HashMap<>();
+    for(int i = 0; i < facades.size(); i++ ) {
+      aMap.put(facades.get(i).getArtifactKey().getArtifactId(), Integer.valueOf(i));
+    }
+    assertEquals(4, aMap.size());
+    assertTrue(aMap.get("a").intValue() < aMap.get("b").intValue());
+    assertTrue(aMap.get("a").intValue() < aMap.get("c").intValue());
+    assertTrue(aMap.get("b").intValue() < aMap.get("d").intValue());
+    assertTrue(aMap.get("c").intValue() < aMap.get("d").intValue());
+  }
+
   private void assertResultMap(Map<String, Integer> aMap) {
     //Pos
     assertTrue(aMap.get("Pos").intValue() < aMap.get("Client").intValue()); //Client
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Test;
@@ -136,6 +137,28 @@ public class MavenProjectFacadeTest extends AbstractMavenProjectTestCase {
     assertEquals("1.6", maven.getMojoParameterValue(mavenProject, executions.get(0), "target", String.class, monitor));
   }
 
+  @Test
+  public void testGetMavenProjectAfterRelease() throws Exception {
+    IProject project = importProject("projects/getmojoexecution/pom.xml");
+    assertNoErrors(project);
+
+    IMavenProjectFacade facade = MavenPlugin.getMavenProjectRegistry().create(project, monitor);
+    MavenProject original = facade.getMavenProject(monitor);
+    String id = original.getId();
+    String outputDirectory = original.getBuild().getOutputDirectory();
+    List<String> plugins = new ArrayList<>(original.getBuild().getPluginsAsMap().keySet());
+
+    // released instances must be re-resolved transparently with the same content
+    deserializeFromWorkspaceState(facade);
+
+    MavenProject reloaded = facade.getMavenProject(monitor);
+    assertNotNull(reloaded);
+    assertEquals(id, reloaded.getId());
+    assertEquals(outputDirectory, reloaded.getBuild().getOutputDirectory());
+    assertEquals(plugins, new ArrayList<>(reloaded.getBuild().getPluginsAsMap().keySet()));
+    assertEquals(facade.getArtifactKey().getArtifactId(), reloaded.getArtifactId());
+  }
+
   @Test
   public void testGetProjectConfigurators() throws Exception {
     IProject project = importProject("projects/getmojoexecution/pom.xml");
@@ -1,12 +1,15 @@
 
 package org.eclipse.m2e.tests.util.search;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,10 +35,59 @@ public class IndexSearchEngineTest extends AbstractMavenProjectTestCase {
     assertFalse(results.contains("grouoo"));
   }
 
+  @Test
+  public void testGroupIDProposalNarrowsWithPrefix() throws Exception {
+    // the index returns every entry, including duplicates, prefix matching is up to the engine
+    IndexSearchEngine engine = new IndexSearchEngine(new UnfilteredTestIndex("org", "org.apache", "org.apache",
+        "org.apache.maven", "org.eclipse", "com.example"));
+    // completion requests arrive keystroke by keystroke, each prefix extending the previous one
+    Collection<String> previous = null;
+    for(String prefix : new String[] {"o", "or", "org", "org.", "org.a", "org.apache"}) {
+      Collection<String> results = engine.findGroupIds(prefix, Packaging.ALL, null);
+      assertFalse(prefix, results.isEmpty());
+      for(String result : results) {
+        assertTrue(prefix + " -> " + result, result.startsWith(prefix));
+      }
+      assertEquals(new HashSet<>(results).size(), results.size());
+      if(previous != null) {
+        assertTrue(prefix, previous.containsAll(results));
+      }
+      previous = results;
+    }
+    assertTrue(previous.contains("org.apache"));
+    assertTrue(previous.contains("org.apache.maven"));
+    assertFalse(previous.contains("org.eclipse"));
+    assertTrue(engine.findGroupIds("net", Packaging.ALL, null).isEmpty());
+  }
+
+  private static class UnfilteredTestIndex extends TestIndex {
+
+    public UnfilteredTestIndex(String... entries) {
+      super(entries);
+    }
+
+    @Override
+    public Collection<IndexedArtifact> find(SearchExpression groupId, SearchExpression artifactId,
+        SearchExpression version, SearchExpression packaging) {
+      List<IndexedArtifact> results = new ArrayList<>();
+      for(String entry : entries) {
+        // several artifacts per group, as in a real index
+        results.add(new IndexedArtifact(entry, "artifact1", null, null, null));
+        results.add(new IndexedArtifact(entry, "artifact2", null, null, null));
+      }
+      return results;
+    }
+  }
+
   private static class TestIndex implements IIndex {
-    String[] entries = new String[] {"group", "groupSomething", "grouoo"};
+    String[] entries;
 
     public TestIndex() {
+      this("group", "groupSomething", "grouoo");
+    }
+
+    public TestIndex(String... entries) {
+      this.entries = entries;
     }
 
     @Override